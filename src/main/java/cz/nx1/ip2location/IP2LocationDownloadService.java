@@ -167,7 +167,17 @@ public class IP2LocationDownloadService {
             LOG.info("Downloading IP2Location '{}' to '{}'.", downloadType, destination);
 
             URL dumpUrl = new URL("https://www.ip2location.com/download?token=" + downloadToken + "&file=" + downloadType);
-            httpClient.download(dumpUrl, destination);
+            try {
+                httpClient.download(dumpUrl, destination);
+            } catch (Exception e) {
+                // Do not leave a partial dump behind, it would pass the download check.
+                try {
+                    deleteIfExists(destination);
+                } catch (IOException cleanupException) {
+                    e.addSuppressed(cleanupException);
+                }
+                throw e;
+            }
 
             // Check what we've received.
             if (!exists(destination) || size(destination) == 0) {
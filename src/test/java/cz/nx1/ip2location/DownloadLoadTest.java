@@ -0,0 +1,299 @@
+package cz.nx1.ip2location;
+
+import cz.nx1.ip2location.FakeIP2LocationServer.Response;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Load test of {@link Server#runDownload()} against a {@link FakeIP2LocationServer}.
+ * <p>
+ * Runs the real {@code @Retryable} policy, but the back-off pauses are only recorded instead of slept.
+ * Throughput and heap usage are logged, not asserted.
+ * </p>
+ * <p>
+ * The test is skipped unless enabled with {@code -Dip2location.loadtest=true}. The size of the large dump
+ * can be raised with {@code -Dip2location.loadtest.size=<bytes>} (e.g. {@code 4294967296} for a 4 GB body).
+ * </p>
+ *
+ * @author agent
+ * @since 2026-10-19
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "ip2location.download.token=1234",
+    "ip2location.download.type=DB1",
+    "ip2location.download.period=HOUR",
+    "ip2location.download.cron=-",
+    "logging.file=target/load-test.log",
+})
+@ContextConfiguration(initializers = DownloadLoadTest.DownloadDirInitializer.class)
+@Slf4j
+public class DownloadLoadTest {
+
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * Back-off period actually applied between attempts of {@link Server#runDownload()}.
+     * <p>
+     * The configured {@code @Backoff(delay = 60000, multiplier = 5)} does not set {@code maxDelay},
+     * so spring-retry caps every period (60s, 300s, ...) at its default maximum of 30s.
+     * Update this together with the policy.
+     * </p>
+     */
+    private static final long CAPPED_BACKOFF = ExponentialBackOffPolicy.DEFAULT_MAX_INTERVAL;
+
+    @ClassRule
+    public static TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static Path downloadDir;
+
+    private static FakeIP2LocationServer fakeServer;
+
+    @Autowired
+    private Server server;
+
+    @Autowired
+    private RecordingSleeper sleeper;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        assumeTrue("Load test is disabled, enable with -Dip2location.loadtest=true.", Boolean.getBoolean("ip2location.loadtest"));
+
+        downloadDir = tempDir.newFolder("i2l-load-test").toPath();
+        fakeServer = new FakeIP2LocationServer("1234");
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        if (fakeServer != null) {
+            fakeServer.close();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        fakeServer.reset();
+        sleeper.reset();
+
+        // The download dir is shared by the application context, start each test with an empty one.
+        try (Stream<Path> files = Files.list(downloadDir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void whenEndpointIsSlow_thenDumpIsDownloadedWithoutRetry() throws Exception {
+        // Given:
+        fakeServer.enqueue(Response.ok(MB).withLatency(500));
+
+        // When:
+        long took = timed(() -> server.runDownload());
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(1));
+        assertThat(sleeper.getSleeps(), is(empty()));
+        assertThat(downloadedSizes(), contains(MB));
+        LOG.info("Slow endpoint download took {} ms.", took);
+    }
+
+    @Test
+    public void whenBandwidthIsCapped_thenDumpIsDownloaded() throws Exception {
+        // Given:
+        fakeServer.enqueue(Response.ok(2 * MB).withBandwidth(4 * MB));
+
+        // When:
+        long took = timed(() -> server.runDownload());
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(1));
+        assertThat(downloadedSizes(), contains(2 * MB));
+        LOG.info("Capped download throughput: {} kB/s.", 2 * MB * 1000 / 1024 / took);
+    }
+
+    @Test
+    public void whenEndpointIsThrottled_thenDownloadIsRetriedWithBackoff() throws Exception {
+        // Given:
+        fakeServer.enqueue(Response.status(429), Response.status(503), Response.ok(MB));
+
+        // When:
+        server.runDownload();
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(3));
+        assertThat(sleeper.getSleeps(), contains(CAPPED_BACKOFF, CAPPED_BACKOFF));
+        assertThat(downloadedSizes(), contains(MB));
+    }
+
+    @Test
+    public void whenEndpointKeepsFailing_thenRetriesAreExhausted() throws Exception {
+        // Given:
+        fakeServer.otherwise(Response.status(500));
+
+        // When:
+        try {
+            server.runDownload();
+            fail("Retry exhaustion check failed: no exception thrown.");
+        } catch (IOException e) {
+            // Expected.
+        }
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(3));
+        assertThat(sleeper.getSleeps(), contains(CAPPED_BACKOFF, CAPPED_BACKOFF));
+        assertThat(downloadedSizes(), is(empty()));
+    }
+
+    @Test
+    public void whenConnectionIsResetMidStream_thenDownloadIsRetried() throws Exception {
+        // Given:
+        fakeServer.enqueue(Response.ok(8 * MB).resetAfter(4 * MB), Response.ok(8 * MB));
+
+        // When:
+        server.runDownload();
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(2));
+        assertThat(sleeper.getSleeps(), contains(CAPPED_BACKOFF));
+        assertThat(downloadedSizes(), contains(8 * MB));
+    }
+
+    @Test
+    public void whenDumpIsLarge_thenDownloadIsStreamed() throws Exception {
+        // Given:
+        long dumpSize = Long.getLong("ip2location.loadtest.size", 256 * MB);
+        fakeServer.enqueue(Response.ok(dumpSize));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong heapPeak = new AtomicLong(heapBefore);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(
+            () -> heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max), 0, 10, TimeUnit.MILLISECONDS
+        );
+
+        // When:
+        long took;
+        try {
+            took = timed(() -> server.runDownload());
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        // Then:
+        assertThat(fakeServer.getRequestCount(), is(1));
+        assertThat(downloadedSizes(), contains(dumpSize));
+
+        LOG.info("Downloaded {} MB in {} ms ({} MB/s), peak heap usage grew by {} MB (max heap {} MB).",
+            dumpSize / MB, took, dumpSize * 1000 / MB / Math.max(took, 1),
+            (heapPeak.get() - heapBefore) / MB, memory.getHeapMemoryUsage().getMax() / MB);
+    }
+
+    private List<Long> downloadedSizes() throws IOException {
+        List<Long> sizes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(downloadDir)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                sizes.add(Files.size(file));
+            }
+        }
+        return sizes;
+    }
+
+    private static long timed(Action action) throws IOException {
+        long started = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    /**
+     * {@link Sleeper} recording back-off periods instead of sleeping.
+     */
+    static class RecordingSleeper implements Sleeper {
+
+        private final List<Long> sleeps = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void sleep(long backOffPeriod) {
+            sleeps.add(backOffPeriod);
+        }
+
+        List<Long> getSleeps() {
+            return new ArrayList<>(sleeps);
+        }
+
+        void reset() {
+            sleeps.clear();
+        }
+    }
+
+    /**
+     * Points the application to the temporary download dir.
+     */
+    static class DownloadDirInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            TestPropertyValues.of("ip2location.download.dir=" + downloadDir).applyTo(context);
+        }
+    }
+
+    @TestConfiguration
+    static class FakeEndpointConfiguration {
+
+        @Bean
+        @Primary
+        public HttpClient fakeEndpointHttpClient() {
+            return fakeServer.httpClient();
+        }
+
+        @Bean
+        public RecordingSleeper recordingSleeper() {
+            return new RecordingSleeper();
+        }
+    }
+}
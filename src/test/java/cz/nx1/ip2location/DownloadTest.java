@@ -2,9 +2,11 @@ package cz.nx1.ip2location;
 
 import cz.nx1.ip2location.IP2LocationDownloadService.Download;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.stream.Stream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -100,6 +102,58 @@ public class DownloadTest {
         thrown.reportMissingExceptionWithMessage("File size check failed: no exception thrown.");
     }
 
+    @Test
+    public void whenDownloadFails_thenPartialFileIsDeleted() throws Exception {
+        // Given:
+        Path downloadDir = tempDir.newFolder("i2l-test").toPath();
+
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Connection reset");
+
+        HttpClient httpClient = mock(HttpClient.class);
+        doAnswer(invocation -> {
+            Files.write(invocation.getArgument(1), "partial file content".getBytes());
+            throw new IOException("Connection reset");
+        }).when(httpClient).download(any(URL.class), any(Path.class));
+
+        // When:
+        IP2LocationDownloadService service = new IP2LocationDownloadService(httpClient, "1234");
+        try {
+            service.download("DB1").to(downloadDir);
+        } finally {
+            // Then:
+            try (Stream<Path> files = Files.list(downloadDir)) {
+                assertThat(files.count(), is(0L));
+            }
+        }
+    }
+
+    @Test
+    public void whenDownloadFailsUnexpectedly_thenPartialFileIsDeleted() throws Exception {
+        // Given:
+        Path downloadDir = tempDir.newFolder("i2l-test").toPath();
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Client failure");
+
+        HttpClient httpClient = mock(HttpClient.class);
+        doAnswer(invocation -> {
+            Files.write(invocation.getArgument(1), "partial file content".getBytes());
+            throw new IllegalStateException("Client failure");
+        }).when(httpClient).download(any(URL.class), any(Path.class));
+
+        // When:
+        IP2LocationDownloadService service = new IP2LocationDownloadService(httpClient, "1234");
+        try {
+            service.download("DB1").to(downloadDir);
+        } finally {
+            // Then:
+            try (Stream<Path> files = Files.list(downloadDir)) {
+                assertThat(files.count(), is(0L));
+            }
+        }
+    }
+
     @Test
     public void whenDownloadTypeIsInvalid_thenExceptionIsThrown() throws Exception {
         // Given:
@@ -0,0 +1,294 @@
+package cz.nx1.ip2location;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded fake of the IP2Location {@code /download?token=&file=} endpoint.
+ * <p>
+ * Each request is answered by the next scripted {@link Response} (see {@link #enqueue(Response...)}),
+ * or by the default response once the script runs out. Responses can simulate latency, bandwidth caps,
+ * connection resets in the middle of the body, error statuses and bodies of arbitrary size (the body is
+ * generated on the fly, so multi-GB downloads do not need any memory or disk on the server side).
+ * </p>
+ *
+ * @author agent
+ * @since 2026-10-19
+ */
+@Slf4j
+public class FakeIP2LocationServer implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final String token;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<Response> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private volatile Response defaultResponse = Response.ok(1024);
+
+    /**
+     * Starts a new fake server on a random loopback port accepting a given download {@code token}.
+     *
+     * @throws IOException if the server cannot be bound
+     */
+    public FakeIP2LocationServer(String token) throws IOException {
+        this.token = token;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.executor = Executors.newCachedThreadPool();
+        this.executor.execute(this::acceptLoop);
+    }
+
+    /**
+     * Appends given {@code responses} to the script. Each request consumes one scripted response.
+     */
+    public FakeIP2LocationServer enqueue(Response... responses) {
+        script.addAll(Arrays.asList(responses));
+        return this;
+    }
+
+    /**
+     * Sets the response used once the script is exhausted.
+     */
+    public FakeIP2LocationServer otherwise(Response response) {
+        this.defaultResponse = response;
+        return this;
+    }
+
+    /**
+     * Clears the script and all counters.
+     */
+    public void reset() {
+        script.clear();
+        requestCount.set(0);
+        bytesSent.set(0);
+        defaultResponse = Response.ok(1024);
+    }
+
+    /**
+     * Returns the number of valid download requests received so far.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Returns the number of body bytes written so far (across all requests).
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Returns an {@link HttpClient} that sends all requests to this server instead of the original host.
+     */
+    public HttpClient httpClient() {
+        return new HttpClient() {
+            @Override
+            public void download(URL source, Path destination) throws IOException {
+                URL redirected = new URL("http", "127.0.0.1", serverSocket.getLocalPort(), source.getFile());
+                super.download(redirected, destination);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> handle(socket));
+            } catch (IOException e) {
+                // Server socket closed -> stop accepting.
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+            String requestLine = in.readLine();
+            for (String header = in.readLine(); header != null && !header.isEmpty(); header = in.readLine()) {
+                // Headers are not needed.
+            }
+
+            Map<String, String> params = parseQuery(requestLine);
+            if (!token.equals(params.get("token")) || params.get("file") == null) {
+                sendStatus(client, 403);
+                return;
+            }
+
+            // Only valid download requests are counted and consume the script.
+            requestCount.incrementAndGet();
+            Response response = script.poll();
+            if (response == null) {
+                response = defaultResponse;
+            }
+
+            sleep(response.latencyMillis);
+            if (response.status != 200) {
+                sendStatus(client, response.status);
+            } else {
+                sendBody(client, response);
+            }
+        } catch (IOException e) {
+            // The client went away (or the reset was simulated) -> nothing to answer.
+            LOG.debug("Fake IP2Location response aborted: {}", e.getMessage());
+        }
+    }
+
+    private void sendStatus(Socket client, int status) throws IOException {
+        byte[] body = ("HTTP " + status).getBytes(StandardCharsets.US_ASCII);
+        OutputStream out = client.getOutputStream();
+        out.write(headers(status, body.length));
+        out.write(body);
+        out.flush();
+    }
+
+    private void sendBody(Socket client, Response response) throws IOException {
+        OutputStream out = new BufferedOutputStream(client.getOutputStream(), CHUNK_SIZE);
+        out.write(headers(200, response.bodySize));
+
+        long limit = response.resetAfterBytes >= 0 ? Math.min(response.resetAfterBytes, response.bodySize) : response.bodySize;
+        byte[] chunk = new byte[CHUNK_SIZE];
+        Arrays.fill(chunk, (byte) 'x');
+
+        long started = System.nanoTime();
+        long written = 0;
+        while (written < limit) {
+            int length = (int) Math.min(chunk.length, limit - written);
+            out.write(chunk, 0, length);
+            written += length;
+            bytesSent.addAndGet(length);
+            throttle(response.bytesPerSecond, written, started);
+        }
+        out.flush();
+
+        if (written < response.bodySize) {
+            // Abort the connection with a TCP RST instead of a graceful FIN.
+            client.setSoLinger(true, 0);
+        }
+    }
+
+    private static byte[] headers(int status, long contentLength) {
+        return String.format("HTTP/1.1 %d %s\r\nContent-Type: %s\r\nContent-Length: %d\r\nConnection: close\r\n\r\n",
+            status, status == 200 ? "OK" : "Error", status == 200 ? "application/zip" : "text/plain", contentLength
+        ).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void throttle(long bytesPerSecond, long written, long startedNanos) {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long expectedMillis = written * 1000 / bytesPerSecond;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        sleep(expectedMillis - elapsedMillis);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String requestLine) {
+        Map<String, String> params = new HashMap<>();
+        if (requestLine == null || !requestLine.startsWith("GET /download?")) {
+            return params;
+        }
+        String query = requestLine.substring("GET /download?".length()).split(" ")[0];
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Scripted response of the fake server.
+     */
+    public static class Response {
+
+        private final int status;
+        private final long bodySize;
+        private long latencyMillis;
+        private long bytesPerSecond;
+        private long resetAfterBytes = -1;
+
+        private Response(int status, long bodySize) {
+            this.status = status;
+            this.bodySize = bodySize;
+        }
+
+        /**
+         * Successful response with a body of a given {@code bodySize} in bytes.
+         */
+        public static Response ok(long bodySize) {
+            return new Response(200, bodySize);
+        }
+
+        /**
+         * Error response with a given HTTP {@code status} (e.g. 429, 503).
+         */
+        public static Response status(int status) {
+            return new Response(status, 0);
+        }
+
+        /**
+         * Delays the response headers by a given number of {@code millis}.
+         */
+        public Response withLatency(long millis) {
+            this.latencyMillis = millis;
+            return this;
+        }
+
+        /**
+         * Caps the body transfer rate to a given number of {@code bytesPerSecond}.
+         */
+        public Response withBandwidth(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Drops the connection once a given number of body {@code bytes} has been sent.
+         */
+        public Response resetAfter(long bytes) {
+            this.resetAfterBytes = bytes;
+            return this;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package cz.nx1.ip2location;
 
+import cz.nx1.ip2location.FakeIP2LocationServer.Response;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -21,6 +24,9 @@ import static org.junit.Assert.assertThat;
 @RunWith(SpringRunner.class)
 public class HttpClientTest {
 
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
     @Rule
     public TemporaryFolder tempDir = new TemporaryFolder();
 
@@ -40,4 +46,41 @@ public class HttpClientTest {
         // Then:
         assertThat(Files.readAllLines(destination), contains("dummy content"));
     }
+
+    @Test
+    public void whenServerRespondsWithError_thenExceptionIsThrown() throws Exception {
+        // Given:
+        thrown.expect(IOException.class);
+        thrown.expectMessage("429");
+
+        Path destination = tempDir.newFile("destination").toPath();
+
+        try (FakeIP2LocationServer server = new FakeIP2LocationServer("1234")) {
+            server.enqueue(Response.status(429));
+
+            // When:
+            server.httpClient().download(new URL("https://www.ip2location.com/download?token=1234&file=DB1"), destination);
+        }
+
+        // Then:
+        thrown.reportMissingExceptionWithMessage("Error status check failed: no exception thrown.");
+    }
+
+    @Test
+    public void whenConnectionIsReset_thenExceptionIsThrown() throws Exception {
+        // Given:
+        thrown.expect(IOException.class);
+
+        Path destination = tempDir.newFile("destination").toPath();
+
+        try (FakeIP2LocationServer server = new FakeIP2LocationServer("1234")) {
+            server.enqueue(Response.ok(1024 * 1024).resetAfter(512 * 1024));
+
+            // When:
+            server.httpClient().download(new URL("https://www.ip2location.com/download?token=1234&file=DB1"), destination);
+        }
+
+        // Then:
+        thrown.reportMissingExceptionWithMessage("Connection reset check failed: no exception thrown.");
+    }
 }